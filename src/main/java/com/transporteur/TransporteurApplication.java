@@ -2,8 +2,16 @@ package com.transporteur;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// Les connexions R2DBC sont créées par ReactiveDatabaseClients : un ConnectionFactory
+// en bean désactiverait la DataSource JPA, et un second gestionnaire de transactions
+// rendrait @Transactional ambigu.
+@SpringBootApplication(exclude = {
+		R2dbcAutoConfiguration.class,
+		R2dbcTransactionManagerAutoConfiguration.class
+})
 public class TransporteurApplication {
 
 	public static void main(String[] args) {
@@ -2,6 +2,7 @@ package com.transporteur.controller;
 
 import com.transporteur.model.Transporteur;
 import com.transporteur.service.TransporteurService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -20,8 +21,25 @@ public class TransporteurController {
         return transporteurService.addTransporteur(t);
     }
 
+    /**
+     * {@code ?fields=idTransporteur,nom,localisation} ne charge et ne renvoie que ces colonnes.
+     * La réponse est en JSON, CBOR ou Smile selon l'en-tête Accept.
+     */
     @GetMapping
-    public List<Transporteur> getAllTransporteurs() {
-        return transporteurService.getAllTransporteurs();
+    public List<?> getAllTransporteurs(@RequestParam(required = false) List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return transporteurService.getAllTransporteurs();
+        }
+        return transporteurService.getAllTransporteurs(fields);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Transporteur> getTransporteur(@PathVariable Long id) {
+        return ResponseEntity.of(transporteurService.getTransporteur(id));
+    }
+
+    @GetMapping("/disponibles")
+    public List<Transporteur> getTransporteursDisponibles(@RequestParam String localisation) {
+        return transporteurService.getTransporteursDisponibles(localisation);
     }
 }
@@ -0,0 +1,19 @@
+package com.transporteur.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientDto {
+
+    private Long idClient;
+    private String nom;
+    private String prenom;
+    private String telephone;
+    private String adresse;
+    private String ville;
+
+}
@@ -0,0 +1,248 @@
+package com.transporteur.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transporteur.dto.ErrorResponse;
+import com.transporteur.idempotency.IdempotencyStore.Claim;
+import com.transporteur.idempotency.IdempotencyStore.StoredResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejoue la première réponse d'un POST de création quand le client renvoie le même
+ * en-tête {@code Idempotency-Key}, sans ré-exécuter le traitement (hash BCrypt, insertions).
+ *
+ * Le filtre s'exécute après Spring Security : la clé est propre à l'utilisateur
+ * authentifié, et une requête refusée n'atteint jamais le cache.
+ *
+ * La clé seule ne suffit pas : une réponse n'est rejouée que pour un corps de requête
+ * identique à celui de la première exécution, et une même clé réutilisée avec un autre
+ * corps reçoit 422. Pour l'inscription, anonyme, seul un client qui renvoie le même
+ * email et le même mot de passe récupère le jeton déjà émis.
+ *
+ * Une réponse 5xx, dont les pannes passagères de la base (voir GlobalExceptionHandler),
+ * n'est pas mémorisée et libère la clé.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Correspondance à la manière de Spring MVC : chemin dans l'application (sans context
+    // path), paramètres de chemin comme ;jsessionid ignorés
+    private static final List<PathPattern> IDEMPOTENT_PATHS = Stream.of("/api/auth/register", "/api/transporteurs")
+            .map(PathPatternParser.defaultInstance::parse)
+            .toList();
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             ObjectMapper objectMapper,
+                             @Value("${idempotency.wait-timeout:PT30S}") Duration waitTimeout) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || idempotentPath(request) == null;
+    }
+
+    private static PathPattern idempotentPath(HttpServletRequest request) {
+        PathContainer path = RequestPath.parse(request.getRequestURI(), request.getContextPath()).pathWithinApplication();
+        return IDEMPOTENT_PATHS.stream()
+                .filter(pattern -> pattern.matches(path))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String key = scopedKey(request);
+        String fingerprint = fingerprint(cachedRequest.body);
+
+        while (true) {
+            Claim claim = store.claim(key, fingerprint);
+            if (claim.owner()) {
+                execute(key, claim, cachedRequest, response, filterChain);
+                return;
+            }
+            if (!claim.fingerprint().equals(fingerprint)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "La clé d'idempotence a déjà été utilisée pour une autre requête");
+                return;
+            }
+
+            StoredResponse stored;
+            try {
+                stored = claim.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                writeError(response, HttpStatus.CONFLICT, "Une requête avec la même clé d'idempotence est en cours");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+
+            // null : la première exécution a échoué et a libéré la clé, on retente la réservation
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+        }
+    }
+
+    private void execute(String key, Claim claim,
+                         HttpServletRequest request,
+                         HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            store.release(key, claim);
+            throw e;
+        }
+
+        // Les erreurs serveur sont transitoires : le prochain essai doit réellement s'exécuter
+        if (wrapper.getStatus() >= 500) {
+            store.release(key, claim);
+        } else {
+            store.complete(claim, new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                    wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("Erreur", message));
+    }
+
+    // Deux utilisateurs qui choisiraient la même clé ne partagent pas leurs réponses ; le
+    // chemin retenu est celui de l'endpoint, quelle que soit l'écriture de l'URI
+    private static String scopedKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String principal = authentication != null ? authentication.getName() : "anonymous";
+        return principal + " " + idempotentPath(request).getPatternString() + " " + request.getHeader(IDEMPOTENCY_KEY_HEADER);
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Requête dont le corps est lu d'avance pour en calculer l'empreinte, puis relu par le contrôleur.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.transporteur.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Réponses déjà servies, indexées par clé d'idempotence.
+ *
+ * Le nombre d'entrées est borné (la plus ancienne est évincée) et chaque entrée
+ * expire après le TTL. Une entrée est créée dès la première requête, avant la
+ * réponse : les doublons arrivés pendant l'exécution attendent son résultat.
+ * Chaque entrée garde l'empreinte du corps de la requête qui l'a créée.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+
+    @Autowired
+    public IdempotencyStore(@Value("${idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    IdempotencyStore(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Réserve la clé si elle est libre. Sinon renvoie la réponse, terminée ou à venir,
+     * et l'empreinte de la requête qui l'a réservée.
+     */
+    public synchronized Claim claim(String key, String fingerprint) {
+        Instant now = clock.instant();
+        evictExpired(now);
+
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return new Claim(false, existing.fingerprint, existing.response);
+        }
+        Entry created = new Entry(new CompletableFuture<>(), fingerprint, now.plus(ttl));
+        entries.put(key, created);
+        return new Claim(true, fingerprint, created.response);
+    }
+
+    public void complete(Claim claim, StoredResponse response) {
+        claim.response().complete(response);
+    }
+
+    /**
+     * Libère la clé sans mémoriser de réponse : les requêtes en attente et les
+     * suivantes exécuteront à nouveau le traitement.
+     */
+    public void release(String key, Claim claim) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response == claim.response()) {
+                entries.remove(key);
+            }
+        }
+        claim.response().complete(null);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    // Même TTL pour toutes les entrées : l'ordre d'insertion est aussi l'ordre d'expiration
+    private void evictExpired(Instant now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().expiresAt.isBefore(now)) {
+            iterator.remove();
+        }
+    }
+
+    private record Entry(CompletableFuture<StoredResponse> response, String fingerprint, Instant expiresAt) {
+    }
+
+    /**
+     * Résultat de {@link #claim} : {@code owner} indique que l'appelant doit exécuter le traitement.
+     */
+    public record Claim(boolean owner, String fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.transporteur.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entrée de l'annuaire des emails, tenu sur le shard par défaut : un email n'y
+ * figure qu'une fois, avec le shard qui porte le compte. {@code pendingSince} date
+ * une réservation dont le compte n'est pas encore confirmé.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "compte_email")
+public class CompteEmail {
+
+    @Id
+    private String email;
+
+    @Column(nullable = false, length = 64)
+    private String shard;
+
+    @Column(name = "pending_since")
+    private LocalDateTime pendingSince;
+
+}
@@ -0,0 +1,86 @@
+package com.transporteur.reactive;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.transporteur.dto.ClientDto;
+import com.transporteur.dto.ErrorResponse;
+import com.transporteur.dto.TransporteurDto;
+import com.transporteur.security.JwtUtil;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Endpoints de lecture non bloquants. Les listes sont écrites au fil de l'eau :
+ * en NDJSON avec {@code Accept: application/x-ndjson}, en tableau JSON sinon.
+ */
+@Component
+public class DirectoryHandler {
+
+    private final ReactiveDirectoryRepository repository;
+    private final JwtUtil jwtUtil;
+
+    public DirectoryHandler(ReactiveDirectoryRepository repository, JwtUtil jwtUtil) {
+        this.repository = repository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    public Mono<ServerResponse> getAllTransporteurs(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(listMediaType(request))
+                .body(repository.findAllTransporteurs(), TransporteurDto.class);
+    }
+
+    public Mono<ServerResponse> getTransporteur(ServerRequest request) {
+        return id(request)
+                .flatMap(repository::findTransporteurById)
+                .flatMap(transporteur -> ServerResponse.ok().bodyValue(transporteur))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getAllClients(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(listMediaType(request))
+                .body(repository.findAllClients(), ClientDto.class);
+    }
+
+    public Mono<ServerResponse> getClient(ServerRequest request) {
+        return id(request)
+                .flatMap(repository::findClientById)
+                .flatMap(client -> ServerResponse.ok().bodyValue(client))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    /**
+     * Même jeton que l'API servlet. Seule la signature est vérifiée : pas d'accès
+     * bloquant au compte sur la boucle d'événements.
+     */
+    public Mono<ServerResponse> authenticate(ServerRequest request,
+                                             HandlerFunction<ServerResponse> next) {
+        String authHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ") && jwtUtil.validateToken(authHeader.substring(7))) {
+            return next.handle(request);
+        }
+        return ServerResponse.status(401).bodyValue(new ErrorResponse("Erreur", "Authentification requise"));
+    }
+
+    private static MediaType listMediaType(ServerRequest request) {
+        return request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+    }
+
+    // Les routes n'acceptent que des chiffres ; au-delà d'un long, aucun profil ne peut correspondre
+    private static Mono<Long> id(ServerRequest request) {
+        try {
+            return Mono.just(Long.valueOf(request.pathVariable("id")));
+        } catch (NumberFormatException e) {
+            return Mono.empty();
+        }
+    }
+
+}
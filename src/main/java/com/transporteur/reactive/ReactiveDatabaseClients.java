@@ -0,0 +1,89 @@
+package com.transporteur.reactive;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import com.transporteur.sharding.ShardProperties;
+
+import io.r2dbc.pool.PoolingConnectionFactoryProvider;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * Un {@link DatabaseClient} par shard, dans l'ordre de la carte des shards
+ * (un seul sans sharding). Les ConnectionFactory ne sont pas des beans : leur
+ * présence ferait reculer l'auto-configuration de la DataSource JPA.
+ *
+ * Avec une URL {@code r2dbc:pool:}, la taille du pool est fixée par
+ * {@code transporteur.reactive.pool-max-size} sauf si l'URL la précise.
+ */
+@Component
+public class ReactiveDatabaseClients implements DisposableBean {
+
+    private final List<ConnectionFactory> connectionFactories = new ArrayList<>();
+    private final Map<String, DatabaseClient> clients = new LinkedHashMap<>();
+    private final int poolMaxSize;
+
+    public ReactiveDatabaseClients(ShardProperties shardProperties, ReactiveProperties reactiveProperties) {
+        this.poolMaxSize = reactiveProperties.getPoolMaxSize();
+        if (shardProperties.isEnabled()) {
+            shardProperties.getShards().forEach((name, shard) -> add(
+                    shard.getR2dbcUrl(), shard.getUsername(), shard.getPassword(), name));
+        } else {
+            add(reactiveProperties.getR2dbcUrl(), reactiveProperties.getUsername(),
+                    reactiveProperties.getPassword(), shardProperties.getDefaultShard());
+        }
+    }
+
+    public List<DatabaseClient> getClients() {
+        return List.copyOf(clients.values());
+    }
+
+    public DatabaseClient getClient(String shard) {
+        DatabaseClient client = clients.get(shard);
+        if (client == null) {
+            throw new IllegalArgumentException("Shard inconnu : " + shard);
+        }
+        return client;
+    }
+
+    private void add(String url, String username, String password, String shard) {
+        if (url == null) {
+            throw new IllegalStateException("Aucune URL R2DBC configurée pour le shard '" + shard + "'");
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null && !password.isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionFactoryOptions parsed = options.build();
+        if (PoolingConnectionFactoryProvider.POOLING_DRIVER.equals(parsed.getValue(ConnectionFactoryOptions.DRIVER))
+                && !parsed.hasOption(PoolingConnectionFactoryProvider.MAX_SIZE)) {
+            options.option(PoolingConnectionFactoryProvider.MAX_SIZE, poolMaxSize);
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+        connectionFactories.add(connectionFactory);
+        clients.put(shard, DatabaseClient.create(connectionFactory));
+    }
+
+    @Override
+    public void destroy() {
+        for (ConnectionFactory connectionFactory : connectionFactories) {
+            if (connectionFactory instanceof Closeable closeable) {
+                Mono.from(closeable.close()).block();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.transporteur.reactive;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import com.transporteur.dto.ClientDto;
+import com.transporteur.dto.TransporteurDto;
+import com.transporteur.sharding.ShardResolver;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lectures R2DBC de l'annuaire.
+ *
+ * Les listes sont lues par pages, dans l'ordre des identifiants : chaque page prend une
+ * connexion le temps de sa requête puis la rend au pool, et la page suivante n'est lue
+ * qu'une fois la précédente consommée par le client. Un client lent ne retient ainsi ni
+ * thread ni connexion. Avec plusieurs shards, les pages de chaque base sont fusionnées ;
+ * une recherche par id ne lit que le shard désigné par l'identifiant.
+ */
+@Component
+public class ReactiveDirectoryRepository {
+
+    private static final String TRANSPORTEUR_COLUMNS =
+            "select id_transporteur, nom, prenom, telephone, localisation, note_moyenne, disponible from transporteur";
+    private static final String CLIENT_COLUMNS =
+            "select id_client, nom, prenom, telephone, adresse, ville from client";
+
+    private final ReactiveDatabaseClients databaseClients;
+    private final ShardResolver shardResolver;
+    private final int chunkSize;
+
+    public ReactiveDirectoryRepository(ReactiveDatabaseClients databaseClients,
+                                       ShardResolver shardResolver,
+                                       ReactiveProperties properties) {
+        this.databaseClients = databaseClients;
+        this.shardResolver = shardResolver;
+        this.chunkSize = properties.getChunkSize();
+    }
+
+    public Flux<TransporteurDto> findAllTransporteurs() {
+        return onEachShard(client -> inChunks(client, TRANSPORTEUR_COLUMNS, "id_transporteur",
+                ReactiveDirectoryRepository::toTransporteur, TransporteurDto::getIdTransporteur));
+    }
+
+    public Mono<TransporteurDto> findTransporteurById(Long id) {
+        return onShardOf(id, client -> client.sql(TRANSPORTEUR_COLUMNS + " where id_transporteur = :id")
+                .bind("id", id)
+                .map(ReactiveDirectoryRepository::toTransporteur)
+                .one());
+    }
+
+    public Flux<ClientDto> findAllClients() {
+        return onEachShard(client -> inChunks(client, CLIENT_COLUMNS, "id_client",
+                ReactiveDirectoryRepository::toClient, ClientDto::getIdClient));
+    }
+
+    public Mono<ClientDto> findClientById(Long id) {
+        return onShardOf(id, client -> client.sql(CLIENT_COLUMNS + " where id_client = :id")
+                .bind("id", id)
+                .map(ReactiveDirectoryRepository::toClient)
+                .one());
+    }
+
+    private <T> Flux<T> onEachShard(Function<DatabaseClient, Flux<T>> query) {
+        return Flux.merge(Flux.fromIterable(databaseClients.getClients()).map(query));
+    }
+
+    private <T> Mono<T> onShardOf(Long id, Function<DatabaseClient, Mono<T>> query) {
+        return Mono.defer(() -> query.apply(databaseClients.getClient(shardResolver.shardForId(id))))
+                // Identifiant hors de toute plage de shard : aucun profil ne peut le porter
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.empty());
+    }
+
+    // Pagination par clé (id > dernier id lu) : chaque page reste une lecture d'index
+    private <T> Flux<T> inChunks(DatabaseClient client, String select, String idColumn,
+                                 Function<Readable, T> mapper, Function<T, Long> idOf) {
+        String sql = select + " where " + idColumn + " > :after order by " + idColumn + " limit " + chunkSize;
+        return Flux.defer(() -> {
+            AtomicLong after = new AtomicLong();
+            AtomicBoolean lastChunk = new AtomicBoolean();
+            // generate n'émet le curseur suivant qu'à la demande, et concatMap sans prefetch
+            // ne le demande qu'une fois la page courante entièrement consommée
+            return Flux.<Long>generate(sink -> {
+                        if (lastChunk.get()) {
+                            sink.complete();
+                        } else {
+                            sink.next(after.get());
+                        }
+                    })
+                    .concatMap(cursor -> client.sql(sql)
+                            .bind("after", cursor)
+                            .map(mapper::apply)
+                            .all()
+                            .collectList()
+                            .doOnNext(chunk -> {
+                                lastChunk.set(chunk.size() < chunkSize);
+                                if (!chunk.isEmpty()) {
+                                    after.set(idOf.apply(chunk.get(chunk.size() - 1)));
+                                }
+                            })
+                            .flatMapIterable(Function.identity()), 0);
+        });
+    }
+
+    private static TransporteurDto toTransporteur(Readable row) {
+        return new TransporteurDto(
+                row.get("id_transporteur", Long.class),
+                row.get("nom", String.class),
+                row.get("prenom", String.class),
+                row.get("telephone", String.class),
+                row.get("localisation", String.class),
+                row.get("note_moyenne", Double.class),
+                row.get("disponible", Boolean.class));
+    }
+
+    private static ClientDto toClient(Readable row) {
+        return new ClientDto(
+                row.get("id_client", Long.class),
+                row.get("nom", String.class),
+                row.get("prenom", String.class),
+                row.get("telephone", String.class),
+                row.get("adresse", String.class),
+                row.get("ville", String.class));
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.transporteur.reactive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Serveur de l'API de lecture réactive et base R2DBC utilisée hors sharding.
+ *
+ * Les listes sont lues par pages de {@code chunkSize} lignes et la connexion est rendue
+ * au pool entre deux pages : un client lent n'occupe une connexion que pendant la
+ * lecture d'une page. Le nombre de pages lues en même temps est borné par
+ * {@code poolMaxSize} (par shard) ; au-delà, les lectures attendent une connexion libre,
+ * sans bloquer de thread.
+ */
+@Data
+@ConfigurationProperties(prefix = "transporteur.reactive")
+public class ReactiveProperties {
+
+    private int port = 8081;
+    private String r2dbcUrl;
+    private String username;
+    private String password;
+    private int chunkSize = 500;
+    private int poolMaxSize = 20;
+
+}
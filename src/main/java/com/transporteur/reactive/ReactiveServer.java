@@ -0,0 +1,79 @@
+package com.transporteur.reactive;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Serveur Reactor Netty qui expose l'annuaire en lecture seule, à côté de Tomcat.
+ * Une requête n'y occupe ni thread ni connexion pendant qu'elle attend un client
+ * lent : l'écriture suit la demande du client, la lecture R2DBC suit l'écriture.
+ */
+@Component
+@EnableConfigurationProperties(ReactiveProperties.class)
+public class ReactiveServer implements SmartLifecycle {
+
+    private final ReactiveProperties properties;
+    private final HttpHandler httpHandler;
+    private volatile DisposableServer server;
+
+    public ReactiveServer(ReactiveProperties properties, DirectoryHandler handler, ObjectMapper objectMapper) {
+        this.properties = properties;
+
+        RouterFunction<ServerResponse> routes = route(GET("/api/reactive/transporteurs"), handler::getAllTransporteurs)
+                .andRoute(GET("/api/reactive/transporteurs/{id:\\d+}"), handler::getTransporteur)
+                .andRoute(GET("/api/reactive/clients"), handler::getAllClients)
+                .andRoute(GET("/api/reactive/clients/{id:\\d+}"), handler::getClient)
+                .filter(handler::authenticate);
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        this.httpHandler = RouterFunctions.toHttpHandler(routes, strategies);
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(properties.getPort())
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.transporteur.repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.transporteur.model.CompteEmail;
+public interface CompteEmailRepository extends JpaRepository<CompteEmail, String>{
+
+    // Insertion explicite : save() ferait un merge et écraserait la réservation d'un autre compte
+    @Modifying
+    @Query(value = "insert into compte_email (email, shard, pending_since) values (:email, :shard, :pendingSince)", nativeQuery = true)
+    void reserve(String email, String shard, LocalDateTime pendingSince);
+
+    // Les mises à jour suivantes ne touchent que la réservation désignée (shard et date) :
+    // 0 ligne modifiée si une autre inscription l'a reprise entre-temps
+    @Modifying
+    @Query(value = "update compte_email set shard = :shard, pending_since = :pendingSince"
+            + " where email = :email and shard = :previousShard and pending_since = :previousPendingSince", nativeQuery = true)
+    int takeOver(String email, String shard, LocalDateTime pendingSince, String previousShard, LocalDateTime previousPendingSince);
+
+    @Modifying
+    @Query(value = "update compte_email set pending_since = null"
+            + " where email = :email and shard = :shard and pending_since = :pendingSince", nativeQuery = true)
+    int confirm(String email, String shard, LocalDateTime pendingSince);
+
+    @Modifying
+    @Query(value = "delete from compte_email"
+            + " where email = :email and shard = :shard and pending_since = :pendingSince", nativeQuery = true)
+    int release(String email, String shard, LocalDateTime pendingSince);
+
+    @Query("select e.shard from CompteEmail e where e.email = :email")
+    Optional<String> findShardByEmail(String email);
+
+}
@@ -7,6 +7,5 @@ import com.transporteur.model.Compte;
 public interface CompteRepository extends JpaRepository<Compte, Long>{
 
     Optional<Compte> findByEmail(String email);
-    boolean existsByEmail(String email);
 
 }
@@ -1,7 +1,11 @@
 package com.transporteur.repository;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.transporteur.model.Transporteur;
-public interface TransporteurRepository extends JpaRepository<Transporteur, Long>{
+public interface TransporteurRepository extends JpaRepository<Transporteur, Long>, TransporteurRepositoryCustom{
+
+    List<Transporteur> findByDisponibleTrueAndLocalisation(String localisation);
 
 }
@@ -0,0 +1,13 @@
+package com.transporteur.repository;
+import java.util.List;
+import java.util.Map;
+
+public interface TransporteurRepositoryCustom {
+
+    /**
+     * Charge uniquement les colonnes demandées (attributs simples de Transporteur),
+     * une map par transporteur avec les champs dans l'ordre demandé.
+     */
+    List<Map<String, Object>> findAllFields(List<String> fields);
+
+}
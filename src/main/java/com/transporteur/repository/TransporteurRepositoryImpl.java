@@ -0,0 +1,57 @@
+package com.transporteur.repository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.transporteur.model.Transporteur;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+public class TransporteurRepositoryImpl implements TransporteurRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllFields(List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Transporteur> root = query.from(Transporteur.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields) {
+            selections.add(root.get(selectableField(root, field)).alias(field));
+        }
+        query.multiselect(selections);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Seules les colonnes de la table sont sélectionnables : pas de compte (mot de passe compris)
+    private static String selectableField(Root<Transporteur> root, String field) {
+        Attribute<? super Transporteur, ?> attribute = root.getModel().getAttributes().stream()
+                .filter(candidate -> candidate.getName().equals(field))
+                .findFirst()
+                .orElse(null);
+        if (attribute == null || attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+            throw new IllegalArgumentException("Champ inconnu : " + field);
+        }
+        return field;
+    }
+
+}
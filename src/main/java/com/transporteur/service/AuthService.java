@@ -1,53 +1,149 @@
 package com.transporteur.service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.transporteur.dto.AuthResponse;
 import com.transporteur.dto.RegisterRequest;
 import com.transporteur.model.Client;
 import com.transporteur.model.Compte;
+import com.transporteur.model.CompteEmail;
 import com.transporteur.model.Transporteur;
 import com.transporteur.repository.ClientRepository;
+import com.transporteur.repository.CompteEmailRepository;
 import com.transporteur.repository.CompteRepository;
 import com.transporteur.repository.TransporteurRepository;
 import com.transporteur.security.JwtUtil;
+import com.transporteur.sharding.ShardResolver;
+import com.transporteur.sharding.ShardTemplate;
 
 @Service
 public class AuthService {
 
+    // Au-delà, une réservation en attente sans compte est considérée comme abandonnée
+    private static final Duration PENDING_RESERVATION_TIMEOUT = Duration.ofMinutes(5);
+
     private final CompteRepository compteRepository;
+    private final CompteEmailRepository compteEmailRepository;
     private final ClientRepository clientRepository;
     private final TransporteurRepository transporteurRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final ShardTemplate shardTemplate;
+    private final ShardResolver shardResolver;
 
     public AuthService(CompteRepository compteRepository, 
+                      CompteEmailRepository compteEmailRepository,
                       ClientRepository clientRepository,
                       TransporteurRepository transporteurRepository,
                       PasswordEncoder passwordEncoder, 
                       AuthenticationManager authenticationManager, 
-                      JwtUtil jwtUtil) {
+                      JwtUtil jwtUtil,
+                      ShardTemplate shardTemplate,
+                      ShardResolver shardResolver) {
         this.compteRepository = compteRepository;
+        this.compteEmailRepository = compteEmailRepository;
         this.clientRepository = clientRepository;
         this.transporteurRepository = transporteurRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.shardTemplate = shardTemplate;
+        this.shardResolver = shardResolver;
     }
 
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
-        // Validation supplémentaire
-        if (compteRepository.existsByEmail(request.getEmail())) {
+        String shard = shardResolver.shardFor(region(request));
+        String directoryShard = shardResolver.directoryShard();
+
+        // Validation supplémentaire : l'email est réservé dans l'annuaire, dont la clé
+        // primaire le rend unique sur tous les shards, y compris entre inscriptions simultanées.
+        // Sur la base de l'annuaire (toujours le cas sans sharding), la réservation et le
+        // compte sont écrits dans une seule transaction
+        if (shard.equals(directoryShard)) {
+            return emailAlreadyUsedOnConflict(() -> shardTemplate.onShard(shard, () -> {
+                reserveEmail(request.getEmail(), shard, null);
+                return createCompte(request);
+            }));
+        }
+
+        // Sur un autre shard, la réservation reste en attente jusqu'à l'écriture du compte.
+        // Si l'inscription s'interrompt entre les deux, elle sera reprise après expiration
+        LocalDateTime pendingSince = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        emailAlreadyUsedOnConflict(() -> shardTemplate.onShard(directoryShard, () -> {
+            reserveEmail(request.getEmail(), shard, pendingSince);
+            return null;
+        }));
+
+        AuthResponse response;
+        try {
+            response = emailAlreadyUsedOnConflict(() -> shardTemplate.onShard(shard, () -> createCompte(request)));
+        } catch (RuntimeException e) {
+            updateReservationQuietly(directoryShard,
+                    () -> compteEmailRepository.release(request.getEmail(), shard, pendingSince));
+            throw e;
+        }
+        // Le compte existe : une confirmation manquée sera faite à la prochaine tentative sur cet email
+        updateReservationQuietly(directoryShard,
+                () -> compteEmailRepository.confirm(request.getEmail(), shard, pendingSince));
+        return response;
+    }
+
+    private void reserveEmail(String email, String shard, LocalDateTime pendingSince) {
+        CompteEmail reservation = compteEmailRepository.findById(email).orElse(null);
+        if (reservation == null) {
+            compteEmailRepository.reserve(email, shard, pendingSince);
+            return;
+        }
+        if (!isAbandoned(reservation) || compteEmailRepository.takeOver(email, shard, pendingSince,
+                reservation.getShard(), reservation.getPendingSince()) == 0) {
             throw new RuntimeException("Email déjà utilisé !");
         }
+    }
 
+    // Réservation en attente depuis trop longtemps et sans compte sur son shard
+    private boolean isAbandoned(CompteEmail reservation) {
+        if (reservation.getPendingSince() == null
+                || reservation.getPendingSince().isAfter(LocalDateTime.now().minus(PENDING_RESERVATION_TIMEOUT))) {
+            return false;
+        }
+        boolean compteExists = shardTemplate.onShard(reservation.getShard(),
+                () -> compteRepository.findByEmail(reservation.getEmail()).isPresent());
+        if (compteExists) {
+            // Transaction distincte : la confirmation survit au refus de l'inscription en cours
+            shardTemplate.onShard(shardResolver.directoryShard(), () -> compteEmailRepository.confirm(
+                    reservation.getEmail(), reservation.getShard(), reservation.getPendingSince()));
+        }
+        return !compteExists;
+    }
+
+    private void updateReservationQuietly(String directoryShard, Supplier<Integer> update) {
+        try {
+            shardTemplate.onShard(directoryShard, update);
+        } catch (RuntimeException e) {
+            // Annuaire injoignable : la réservation reste en attente et sera reprise ou confirmée plus tard
+        }
+    }
+
+    private static <T> T emailAlreadyUsedOnConflict(Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Email déjà utilisé !");
+        }
+    }
+
+    private AuthResponse createCompte(RegisterRequest request) {
         // Création du compte
         Compte compte = new Compte();
         compte.setEmail(request.getEmail());
@@ -67,6 +163,10 @@ public class AuthService {
         return new AuthResponse(token);
     }
 
+    private String region(RegisterRequest request) {
+        return request.getRole().equalsIgnoreCase("CLIENT") ? request.getVille() : request.getLocalisation();
+    }
+
     private void createClientProfile(Compte compte, RegisterRequest request) {
         if (request.getNom() == null || request.getPrenom() == null) {
             throw new RuntimeException("Le nom et prénom sont obligatoires pour un client");
@@ -5,22 +5,40 @@ import org.springframework.stereotype.Service;
 
 import com.transporteur.model.Client;
 import com.transporteur.repository.ClientRepository;
+import com.transporteur.repository.CompteRepository;
+import com.transporteur.sharding.ShardResolver;
+import com.transporteur.sharding.ShardTemplate;
 @Service
 
 public class ClientService {
 
     private final ClientRepository clientRepository;
-
-    public ClientService(ClientRepository clientRepository) {
+    private final CompteRepository compteRepository;
+    private final ShardTemplate shardTemplate;
+    private final ShardResolver shardResolver;
+
+    public ClientService(ClientRepository clientRepository,
+                         CompteRepository compteRepository,
+                         ShardTemplate shardTemplate,
+                         ShardResolver shardResolver) {
         this.clientRepository = clientRepository;
+        this.compteRepository = compteRepository;
+        this.shardTemplate = shardTemplate;
+        this.shardResolver = shardResolver;
     }
 
     public Client addClient(Client client) {
-        return clientRepository.save(client);
+        Long compteId = client.getCompte() == null ? null : client.getCompte().getId();
+        return shardTemplate.onShard(shardResolver.shardForProfile(client.getVille(), compteId), () -> {
+            if (!compteRepository.existsById(compteId)) {
+                throw new RuntimeException("Compte introuvable : " + compteId);
+            }
+            return clientRepository.save(client);
+        });
     }
 
     public List<Client> getAllClients() {
-        return clientRepository.findAll();
+        return shardTemplate.scatter(clientRepository::findAll);
     }
 
 }
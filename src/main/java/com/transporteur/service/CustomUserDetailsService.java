@@ -1,7 +1,10 @@
 package com.transporteur.service;
 
 import com.transporteur.model.Compte;
+import com.transporteur.repository.CompteEmailRepository;
 import com.transporteur.repository.CompteRepository;
+import com.transporteur.sharding.ShardResolver;
+import com.transporteur.sharding.ShardTemplate;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 import java.util.Collections;
@@ -10,14 +13,24 @@ import java.util.Collections;
 public class CustomUserDetailsService implements UserDetailsService{
 
     private final CompteRepository compteRepository;
+    private final CompteEmailRepository compteEmailRepository;
+    private final ShardTemplate shardTemplate;
+    private final ShardResolver shardResolver;
 
-    public CustomUserDetailsService(CompteRepository compteRepository) {
+    public CustomUserDetailsService(CompteRepository compteRepository,
+                                    CompteEmailRepository compteEmailRepository,
+                                    ShardTemplate shardTemplate,
+                                    ShardResolver shardResolver) {
         this.compteRepository = compteRepository;
+        this.compteEmailRepository = compteEmailRepository;
+        this.shardTemplate = shardTemplate;
+        this.shardResolver = shardResolver;
     }
 
+    // Appelé à chaque requête authentifiée : un seul shard est interrogé pour le compte
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Compte compte = compteRepository.findByEmail(email)
+        Compte compte = shardTemplate.onShard(shardOf(email), () -> compteRepository.findByEmail(email))
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé"));
         return new User(
                 compte.getEmail(),
@@ -26,4 +39,12 @@ public class CustomUserDetailsService implements UserDetailsService{
         );
     }
 
+    private String shardOf(String email) {
+        if (shardTemplate.getShards().size() == 1) {
+            return shardTemplate.getShards().get(0);
+        }
+        return shardTemplate.onShard(shardResolver.directoryShard(), () -> compteEmailRepository.findShardByEmail(email))
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé"));
+    }
+
 }
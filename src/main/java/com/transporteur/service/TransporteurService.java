@@ -1,27 +1,72 @@
 package com.transporteur.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
 import com.transporteur.model.Transporteur;
+import com.transporteur.repository.CompteRepository;
 import com.transporteur.repository.TransporteurRepository;
+import com.transporteur.sharding.ShardResolver;
+import com.transporteur.sharding.ShardTemplate;
 
 @Service
 public class TransporteurService {
 
     private final TransporteurRepository transporteurRepository;
+    private final CompteRepository compteRepository;
+    private final ShardTemplate shardTemplate;
+    private final ShardResolver shardResolver;
 
-    public TransporteurService(TransporteurRepository transporteurRepository) {
+    public TransporteurService(TransporteurRepository transporteurRepository,
+                               CompteRepository compteRepository,
+                               ShardTemplate shardTemplate,
+                               ShardResolver shardResolver) {
         this.transporteurRepository = transporteurRepository;
+        this.compteRepository = compteRepository;
+        this.shardTemplate = shardTemplate;
+        this.shardResolver = shardResolver;
     }
 
     public Transporteur addTransporteur(Transporteur t) {
-        return transporteurRepository.save(t);
+        Long compteId = t.getCompte() == null ? null : t.getCompte().getId();
+        return shardTemplate.onShard(shardResolver.shardForProfile(t.getLocalisation(), compteId), () -> {
+            if (!compteRepository.existsById(compteId)) {
+                throw new RuntimeException("Compte introuvable : " + compteId);
+            }
+            return transporteurRepository.save(t);
+        });
     }
 
     public List<Transporteur> getAllTransporteurs() {
-        return transporteurRepository.findAll();
+        return shardTemplate.scatter(transporteurRepository::findAll);
+    }
+
+    public List<Map<String, Object>> getAllTransporteurs(List<String> fields) {
+        List<String> distinctFields = fields.stream()
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .toList();
+        return shardTemplate.scatter(() -> transporteurRepository.findAllFields(distinctFields));
+    }
+
+    public Optional<Transporteur> getTransporteur(Long id) {
+        String shard;
+        try {
+            shard = shardResolver.shardForId(id);
+        } catch (IllegalArgumentException e) {
+            // Identifiant hors de toute plage de shard : aucun profil ne peut le porter
+            return Optional.empty();
+        }
+        return shardTemplate.onShard(shard, () -> transporteurRepository.findById(id));
+    }
+
+    public List<Transporteur> getTransporteursDisponibles(String localisation) {
+        return shardTemplate.onShard(shardResolver.shardFor(localisation),
+                () -> transporteurRepository.findByDisponibleTrueAndLocalisation(localisation));
     }
 
 }
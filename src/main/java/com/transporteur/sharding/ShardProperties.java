@@ -0,0 +1,60 @@
+package com.transporteur.sharding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Carte des shards : une base par groupe de régions.
+ *
+ * <pre>
+ * transporteur.sharding.enabled=true
+ * transporteur.sharding.default-shard=nord
+ * transporteur.sharding.shards.nord.index=0
+ * transporteur.sharding.shards.nord.url=jdbc:mysql://...
+ * transporteur.sharding.shards.nord.r2dbc-url=r2dbc:pool:mysql://...
+ * transporteur.sharding.shards.sud.index=1
+ * transporteur.sharding.shards.sud.url=jdbc:mysql://...
+ * transporteur.sharding.regions.tunis=nord
+ * transporteur.sharding.regions.sfax=sud
+ * </pre>
+ *
+ * Ajouter une région revient à ajouter une ligne {@code regions.*} ; ajouter une base,
+ * une entrée {@code shards.*}. Les lignes déjà écrites ne sont pas déplacées.
+ *
+ * L'index d'un shard fixe sa plage d'identifiants : les lignes créées sur le shard
+ * d'index {@code n} reçoivent des identifiants à partir de {@code n × ID_RANGE}, ce qui
+ * rend les identifiants uniques entre shards et permet de retrouver le shard d'une
+ * ligne à partir de son identifiant. La base existante garde l'index 0 ; un index ne
+ * change plus une fois le shard en service.
+ *
+ * Le shard par défaut porte aussi l'annuaire des emails ({@code compte_email}), qui
+ * garantit l'unicité d'un email sur l'ensemble des shards et indique le shard du compte.
+ */
+@Data
+@ConfigurationProperties(prefix = "transporteur.sharding")
+public class ShardProperties {
+
+    /** Taille de la plage d'identifiants de chaque shard (reste sous 2^53 pour les clients JSON). */
+    public static final long ID_RANGE = 1_000_000_000_000L;
+
+    private boolean enabled = false;
+    private String defaultShard = "default";
+    private int scatterThreads = 8;
+    private Map<String, ShardDataSource> shards = new LinkedHashMap<>();
+    private Map<String, String> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class ShardDataSource {
+
+        private int index;
+        private String url;
+        private String r2dbcUrl;
+        private String username;
+        private String password;
+    }
+
+}
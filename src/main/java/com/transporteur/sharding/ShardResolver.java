@@ -0,0 +1,79 @@
+package com.transporteur.sharding;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Détermine le shard d'un profil à partir de sa région ({@code localisation} d'un
+ * transporteur, {@code ville} d'un client). Les régions absentes de la carte vont
+ * sur le shard par défaut.
+ */
+@Component
+public class ShardResolver {
+
+    private final String defaultShard;
+    private final Map<String, String> shardByRegion = new HashMap<>();
+    private final Map<Long, String> shardByIndex = new HashMap<>();
+
+    public ShardResolver(ShardProperties properties) {
+        this.defaultShard = properties.getDefaultShard();
+        properties.getRegions().forEach((region, shard) -> shardByRegion.put(normalize(region), shard));
+        if (properties.isEnabled()) {
+            properties.getShards().forEach((name, shard) -> shardByIndex.put((long) shard.getIndex(), name));
+        }
+    }
+
+    public String shardFor(String region) {
+        if (region == null || region.isBlank()) {
+            return defaultShard;
+        }
+        return shardByRegion.getOrDefault(normalize(region), defaultShard);
+    }
+
+    /**
+     * Shard sur lequel la ligne d'identifiant {@code id} a été créée (voir {@link ShardProperties#ID_RANGE}).
+     */
+    public String shardForId(long id) {
+        if (shardByIndex.isEmpty()) {
+            return defaultShard;
+        }
+        String shard = shardByIndex.get(id / ShardProperties.ID_RANGE);
+        if (shard == null) {
+            throw new IllegalArgumentException("Aucun shard pour l'identifiant " + id);
+        }
+        return shard;
+    }
+
+    /**
+     * Shard d'un profil rattaché à un compte existant : celui de sa région, qui doit
+     * aussi être celui du compte, la clé étrangère ne traversant pas les bases.
+     */
+    public String shardForProfile(String region, Long compteId) {
+        if (compteId == null) {
+            throw new IllegalArgumentException("Le compte du profil est obligatoire");
+        }
+        String shard = shardFor(region);
+        if (!shard.equals(shardForId(compteId))) {
+            throw new IllegalArgumentException("Le compte " + compteId + " n'appartient pas à la région " + region);
+        }
+        return shard;
+    }
+
+    /**
+     * Shard qui porte l'annuaire des emails.
+     */
+    public String directoryShard() {
+        return defaultShard;
+    }
+
+    // "Sousse ", "sousse" et "Soussé" désignent la même région
+    static String normalize(String region) {
+        String decomposed = Normalizer.normalize(region.trim(), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.transporteur.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Aiguille chaque connexion vers la base du shard courant.
+ *
+ * Au démarrage (Flyway, validation Hibernate), une connexion sans shard courant part
+ * sur le shard par défaut. Une fois le contexte initialisé, elle est refusée : un
+ * accès aux repositories hors de {@link ShardTemplate} lirait ou écrirait sur le
+ * shard par défaut sans que rien ne le signale.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private volatile boolean shardRequired;
+
+    void requireShard() {
+        this.shardRequired = true;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.current();
+        if (shard == null && shardRequired) {
+            throw new IllegalStateException("Aucun shard sélectionné : les accès aux repositories passent par ShardTemplate");
+        }
+        return shard;
+    }
+
+}
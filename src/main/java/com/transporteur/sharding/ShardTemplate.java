@@ -0,0 +1,124 @@
+package com.transporteur.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exécute les accès aux repositories sur un shard donné, ou sur tous les shards
+ * en parallèle (scatter-gather) pour les requêtes globales.
+ *
+ * Chaque exécution ouvre sa propre transaction après avoir positionné le shard,
+ * pour que la connexion soit prise sur la bonne base. Sans sharding, il n'y a
+ * qu'un shard et tout s'exécute sur le thread appelant.
+ */
+@Component
+public class ShardTemplate implements DisposableBean {
+
+    private final List<String> shards;
+    private final TransactionTemplate writeTemplate;
+    private final TransactionTemplate readTemplate;
+    private final ExecutorService scatterExecutor;
+
+    public ShardTemplate(ShardProperties properties, PlatformTransactionManager transactionManager) {
+        this.shards = properties.isEnabled()
+                ? List.copyOf(properties.getShards().keySet())
+                : List.of(properties.getDefaultShard());
+
+        // Avec plusieurs bases, une transaction déjà ouverte appartient peut-être à un autre shard
+        int propagation = properties.isEnabled()
+                ? TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                : TransactionDefinition.PROPAGATION_REQUIRED;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(propagation);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(propagation);
+        this.readTemplate.setReadOnly(true);
+
+        this.scatterExecutor = shards.size() > 1
+                ? Executors.newFixedThreadPool(properties.getScatterThreads(), scatterThreadFactory())
+                : null;
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public <T> T onShard(String shard, Supplier<T> action) {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Shard inconnu : " + shard);
+        }
+        return run(shard, writeTemplate, action);
+    }
+
+    /**
+     * Exécute la requête sur chaque shard et concatène les résultats dans l'ordre des shards.
+     */
+    public <T> List<T> scatter(Supplier<? extends Collection<T>> query) {
+        List<T> merged = new ArrayList<>();
+        onEachShard(query).forEach(merged::addAll);
+        return merged;
+    }
+
+    private <R> List<R> onEachShard(Supplier<R> query) {
+        if (scatterExecutor == null) {
+            return List.of(run(shards.get(0), readTemplate, query));
+        }
+
+        // Le premier shard est interrogé sur le thread appelant pendant que les autres travaillent
+        List<CompletableFuture<R>> others = new ArrayList<>();
+        for (String shard : shards.subList(1, shards.size())) {
+            others.add(CompletableFuture.supplyAsync(() -> run(shard, readTemplate, query), scatterExecutor));
+        }
+        List<R> results = new ArrayList<>();
+        results.add(run(shards.get(0), readTemplate, query));
+        try {
+            others.forEach(future -> results.add(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static <R> R run(String shard, TransactionTemplate template, Supplier<R> action) {
+        String previous = ShardContext.set(shard);
+        try {
+            return template.execute(status -> action.get());
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private static ThreadFactory scatterThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.transporteur.sharding;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transporteur.sharding", name = "enabled", havingValue = "true")
+    public ShardRoutingDataSource dataSource(ShardProperties properties) {
+        if (!properties.getShards().containsKey(properties.getDefaultShard())) {
+            throw new IllegalStateException("Le shard par défaut '" + properties.getDefaultShard()
+                    + "' n'est pas déclaré dans transporteur.sharding.shards");
+        }
+        Set<Integer> indexes = new HashSet<>();
+        properties.getShards().forEach((name, shard) -> {
+            if (shard.getIndex() < 0 || !indexes.add(shard.getIndex())) {
+                throw new IllegalStateException("Index du shard '" + name + "' négatif ou déjà utilisé : " + shard.getIndex());
+            }
+        });
+
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        properties.getShards().forEach((name, shard) -> targets.put(name, DataSourceBuilder.create()
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build()));
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(properties.getDefaultShard()));
+        routing.setLenientFallback(false);
+        return routing;
+    }
+
+    /**
+     * Flyway ne voit que la source de données principale : on applique les migrations à chaque shard,
+     * avec son nom et son index en placeholders ({@code shard}, {@code shardIndex}).
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "transporteur.sharding", name = "enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardedMigrationStrategy(ShardRoutingDataSource dataSource,
+                                                            ShardProperties properties) {
+        return flyway -> properties.getShards().forEach((name, shard) -> {
+            Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+            placeholders.put("shard", name);
+            placeholders.put("shardIndex", String.valueOf(shard.getIndex()));
+            DataSource shardDataSource = dataSource.getResolvedDataSources().get(name);
+            Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .placeholders(placeholders)
+                    .dataSource(shardDataSource)
+                    .load()
+                    .migrate();
+        });
+    }
+
+    /**
+     * Migrations et validation du schéma passées, toute connexion doit désigner son shard.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "transporteur.sharding", name = "enabled", havingValue = "true")
+    public SmartInitializingSingleton shardRequiredAfterStartup(ShardRoutingDataSource dataSource) {
+        return dataSource::requireShard;
+    }
+
+}
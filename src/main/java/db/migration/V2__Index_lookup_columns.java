@@ -0,0 +1,58 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Index sur les colonnes de jointure et de filtre.
+ *
+ * Un compte n'a qu'un seul profil : l'index de jointure sur compte_id est aussi une
+ * contrainte. Une base créée par {@code ddl-auto=update} (Hibernate 6.2 et plus) porte
+ * déjà une clé unique sur compte_id pour chaque {@code @OneToOne} ; elle est reprise
+ * telle quelle plutôt que doublée, ce qui coûterait une écriture d'index par insertion.
+ */
+public class V2__Index_lookup_columns extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (String table : List.of("client", "transporteur")) {
+                if (!hasUniqueIndexOn(connection, table, "compte_id")) {
+                    statement.execute("CREATE UNIQUE INDEX uk_" + table + "_compte ON " + table + " (compte_id)");
+                }
+            }
+
+            statement.execute("CREATE INDEX idx_client_ville ON client (ville)");
+
+            // Recherche par localisation, avec ou sans filtre sur la disponibilité : un seul
+            // index, la localisation (sélective) en tête
+            statement.execute("CREATE INDEX idx_transporteur_localisation_disponible ON transporteur (localisation, disponible)");
+        }
+    }
+
+    // Les métadonnées JDBC lisent information_schema.statistics sur MySQL, et fonctionnent aussi sur H2
+    private static boolean hasUniqueIndexOn(Connection connection, String table, String column) throws Exception {
+        DatabaseMetaData metaData = connection.getMetaData();
+        Map<String, List<String>> columnsByIndex = new HashMap<>();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+            while (indexes.next()) {
+                if (indexes.getString("INDEX_NAME") != null && indexes.getString("COLUMN_NAME") != null) {
+                    columnsByIndex.computeIfAbsent(indexes.getString("INDEX_NAME"), name -> new ArrayList<>())
+                            .add(indexes.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+        }
+        return columnsByIndex.containsValue(List.of(column));
+    }
+
+}
@@ -0,0 +1,50 @@
+package db.migration;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import com.transporteur.sharding.ShardProperties;
+
+/**
+ * Place les compteurs AUTO_INCREMENT du shard au début de sa plage d'identifiants
+ * (index du shard × {@link ShardProperties#ID_RANGE}). Sans sharding, ou sur le shard
+ * d'index 0, rien ne change.
+ */
+public class V4__Shard_id_ranges extends BaseJavaMigration {
+
+    private static final List<String[]> ID_COLUMNS = List.of(
+            new String[] { "compte", "id" },
+            new String[] { "client", "id_client" },
+            new String[] { "transporteur", "id_transporteur" });
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        long index = Long.parseLong(context.getConfiguration().getPlaceholders().getOrDefault("shardIndex", "0"));
+        if (index == 0) {
+            return;
+        }
+
+        long rangeStart = index * ShardProperties.ID_RANGE;
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String[] idColumn : ID_COLUMNS) {
+                String table = idColumn[0];
+                long maxId;
+                try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(" + idColumn[1] + "), 0) FROM " + table)) {
+                    result.next();
+                    maxId = result.getLong(1);
+                }
+                // Des lignes hors plage seraient attribuées à un autre shard d'après leur identifiant
+                if (maxId > 0 && maxId < rangeStart) {
+                    throw new IllegalStateException("La table " + table + " contient déjà des identifiants hors de la plage du shard "
+                            + index + " : une base existante doit garder l'index 0");
+                }
+                statement.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + Math.max(rangeStart, maxId + 1));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+-- Schéma initial, aligné sur ce que ddl-auto=update générait jusqu'ici.
+-- IF NOT EXISTS permet de baseliner une base existante sans la recréer.
+
+CREATE TABLE IF NOT EXISTS compte (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    email         VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    role          ENUM('CLIENT', 'TRANSPORTEUR', 'ADMIN'),
+    date_creation DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_compte_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS client (
+    id_client BIGINT       NOT NULL AUTO_INCREMENT,
+    compte_id BIGINT       NOT NULL,
+    nom       VARCHAR(255) NOT NULL,
+    prenom    VARCHAR(255) NOT NULL,
+    telephone VARCHAR(255),
+    adresse   VARCHAR(255),
+    ville     VARCHAR(255),
+    PRIMARY KEY (id_client),
+    CONSTRAINT fk_client_compte FOREIGN KEY (compte_id) REFERENCES compte (id)
+);
+
+CREATE TABLE IF NOT EXISTS transporteur (
+    id_transporteur BIGINT       NOT NULL AUTO_INCREMENT,
+    compte_id       BIGINT       NOT NULL,
+    nom             VARCHAR(255) NOT NULL,
+    prenom          VARCHAR(255) NOT NULL,
+    telephone       VARCHAR(255),
+    localisation    VARCHAR(255),
+    note_moyenne    FLOAT(53),
+    disponible      BIT,
+    PRIMARY KEY (id_transporteur),
+    CONSTRAINT fk_transporteur_compte FOREIGN KEY (compte_id) REFERENCES compte (id)
+);
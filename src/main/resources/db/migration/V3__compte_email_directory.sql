@@ -0,0 +1,16 @@
+-- Annuaire des emails : unicité de l'email sur l'ensemble des shards et shard du compte.
+-- Seule la copie du shard par défaut est utilisée ; la table existe partout pour garder
+-- un schéma identique sur chaque shard.
+-- pending_since : réservation dont le compte, sur un autre shard, n'est pas encore
+-- confirmé ; NULL une fois le compte écrit.
+
+CREATE TABLE IF NOT EXISTS compte_email (
+    email         VARCHAR(255) NOT NULL,
+    shard         VARCHAR(64)  NOT NULL,
+    pending_since DATETIME,
+    PRIMARY KEY (email)
+);
+
+-- Les comptes existants sont sur la base d'origine, devenue le shard ${shard}.
+INSERT INTO compte_email (email, shard)
+SELECT email, '${shard}' FROM compte;
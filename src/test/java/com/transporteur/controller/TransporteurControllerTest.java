@@ -0,0 +1,122 @@
+package com.transporteur.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.transporteur.dto.RegisterRequest;
+import com.transporteur.service.AuthService;
+import com.transporteur.service.TransporteurService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransporteurControllerTest {
+
+    private static final String CBOR = "application/cbor";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TransporteurService transporteurService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("liste-" + System.nanoTime() + "@test.tn");
+        request.setPassword("secret123");
+        request.setRole("TRANSPORTEUR");
+        request.setNom("Ben Salah");
+        request.setPrenom("Karim");
+        request.setLocalisation("Sousse");
+        token = authService.register(request).getToken();
+    }
+
+    @Test
+    void fieldsLimitsColumnsOfEachTransporteur() throws Exception {
+        mockMvc.perform(get("/api/transporteurs")
+                        .param("fields", "idTransporteur,nom,localisation,disponible")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].nom", hasItem("Ben Salah")))
+                .andExpect(jsonPath("$[*].disponible", everyItem(is(true))))
+                .andExpect(jsonPath("$[*].compte").isEmpty())
+                .andExpect(jsonPath("$[*].prenom").isEmpty());
+    }
+
+    @Test
+    void associationsAndUnknownFieldsAreRejected() throws Exception {
+        mockMvc.perform(get("/api/transporteurs")
+                        .param("fields", "nom,compte")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void disponiblesAreFilteredByLocalisation() throws Exception {
+        mockMvc.perform(get("/api/transporteurs/disponibles")
+                        .param("localisation", "Sousse")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].nom", hasItem("Ben Salah")))
+                .andExpect(jsonPath("$[*].localisation", everyItem(is("Sousse"))))
+                .andExpect(jsonPath("$[*].disponible", everyItem(is(true))));
+
+        mockMvc.perform(get("/api/transporteurs/disponibles")
+                        .param("localisation", "Tozeur")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void lookupByIdReturnsTransporteurOrNotFound() throws Exception {
+        Long id = transporteurService.getAllTransporteurs().get(0).getIdTransporteur();
+
+        mockMvc.perform(get("/api/transporteurs/{id}", id)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idTransporteur").value(id));
+
+        mockMvc.perform(get("/api/transporteurs/{id}", Long.MAX_VALUE)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void listIsAvailableAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/transporteurs")
+                        .param("fields", "nom,localisation")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Map<String, Object>> transporteurs = new CBORMapper().readValue(body, new TypeReference<>() {});
+        assertThat(transporteurs).contains(Map.of("nom", "Ben Salah", "localisation", "Sousse"));
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.transporteur.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.transporteur.security.JwtUtil;
+
+/**
+ * Le filtre dans la chaîne réelle : Spring Security, AuthService (BCrypt, insertions) et la base.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyFilterIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void registerRetryIsReplayedWithoutCreatingASecondCompte() throws Exception {
+        String body = register("retry@test.tn");
+
+        String first = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "inscription-1")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "inscription-1")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().string(first));
+
+        // Même clé, autre inscription : pas de rejeu du jeton du premier compte
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "inscription-1")
+                        .content(register("autre@test.tn")))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(countComptes("retry@test.tn")).isEqualTo(1);
+        assertThat(countComptes("autre@test.tn")).isZero();
+    }
+
+    @Test
+    void spellingsOfTheSameEndpointShareTheKey() throws Exception {
+        String body = register("variantes@test.tn");
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "inscription-variantes")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        mockMvc.perform(post("/transporteur/api/auth/register")
+                        .contextPath("/transporteur")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "inscription-variantes")
+                        .content(body))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        // Barre finale : Spring MVC n'y associe pas le contrôleur, l'inscription n'est pas rejouée ni ré-exécutée
+        mockMvc.perform(post("/api/auth/register/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "inscription-variantes")
+                        .content(body))
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        assertThat(countComptes("variantes@test.tn")).isEqualTo(1);
+    }
+
+    @Test
+    void requestRefusedBySecurityIsNotStored() throws Exception {
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(register("securite@test.tn")))
+                .andExpect(status().isOk());
+        String body = "{\"nom\":\"Nom\",\"prenom\":\"Prénom\",\"localisation\":\"Tunis\"}";
+
+        mockMvc.perform(post("/api/transporteurs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "creation-1")
+                        .content(body))
+                .andExpect(status().isForbidden());
+
+        // La même clé, une fois authentifié, exécute réellement la requête
+        mockMvc.perform(post("/api/transporteurs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken("securite@test.tn"))
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "creation-1")
+                        .content(body))
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    private int countComptes(String email) {
+        return jdbcTemplate.queryForObject("select count(*) from compte where email = ?", Integer.class, email);
+    }
+
+    private static String register(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"secret123\",\"role\":\"CLIENT\","
+                + "\"nom\":\"Nom\",\"prenom\":\"Prénom\",\"ville\":\"Tunis\"}";
+    }
+
+}
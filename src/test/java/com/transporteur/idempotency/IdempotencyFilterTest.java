@@ -0,0 +1,202 @@
+package com.transporteur.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.transporteur.exception.GlobalExceptionHandler;
+
+class IdempotencyFilterTest {
+
+    private CountingController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        controller = new CountingController();
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(5), 100);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addFilters(new IdempotencyFilter(store, Jackson2ObjectMapperBuilder.json().build(), Duration.ofSeconds(5)))
+                .build();
+    }
+
+    @Test
+    void retryIsServedFromStoreWithoutRunningHandler() throws Exception {
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("created-1"));
+
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().string("created-1"));
+
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void requestsWithoutKeyOrWithDifferentKeysRunHandler() throws Exception {
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "a"));
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "b"));
+        mockMvc.perform(post("/api/transporteurs"));
+
+        assertThat(controller.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForFirstExecution() throws Exception {
+        controller.gate = new CountDownLatch(1);
+
+        List<CompletableFuture<String>> responses = List.of(
+                CompletableFuture.supplyAsync(this::postWithSharedKey),
+                CompletableFuture.supplyAsync(this::postWithSharedKey),
+                CompletableFuture.supplyAsync(this::postWithSharedKey));
+
+        Thread.sleep(200);
+        controller.gate.countDown();
+
+        assertThat(responses).allSatisfy(response ->
+                assertThat(response.get(5, TimeUnit.SECONDS)).isEqualTo("created-1"));
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void serverErrorsAreNotStored() throws Exception {
+        controller.failNext = true;
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k2"))
+                .andExpect(status().isServiceUnavailable());
+
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("created-2"));
+    }
+
+    @Test
+    void transientDatabaseErrorsAreNotStored() throws Exception {
+        controller.databaseTimeoutNext = true;
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k3"))
+                .andExpect(status().isServiceUnavailable());
+
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k3"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andExpect(content().string("created-2"));
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsRejected() throws Exception {
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k4").content("{\"nom\":\"A\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("created-1"));
+
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k4").content("{\"nom\":\"B\"}"))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "k4").content("{\"nom\":\"A\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void storeEvictsExpiredAndOldestEntries() {
+        MutableClock clock = new MutableClock();
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 2, clock);
+
+        assertThat(store.claim("a", "x").owner()).isTrue();
+        assertThat(store.claim("a", "x").owner()).isFalse();
+        store.claim("b", "x");
+        store.claim("c", "x");
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.claim("a", "x").owner()).isTrue();
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(store.claim("c", "x").owner()).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    private String postWithSharedKey() {
+        try {
+            return mockMvc.perform(post("/api/transporteurs").header("Idempotency-Key", "shared"))
+                    .andReturn().getResponse().getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @RestController
+    static class CountingController {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile CountDownLatch gate;
+        volatile boolean failNext;
+        volatile boolean databaseTimeoutNext;
+
+        @PostMapping("/api/transporteurs")
+        ResponseEntity<String> create(@RequestBody(required = false) String body) throws InterruptedException {
+            int call = calls.incrementAndGet();
+            if (gate != null) {
+                gate.await(5, TimeUnit.SECONDS);
+            }
+            if (databaseTimeoutNext) {
+                databaseTimeoutNext = false;
+                throw new QueryTimeoutException("délai dépassé");
+            }
+            if (failNext) {
+                failNext = false;
+                return ResponseEntity.status(503).body("indisponible");
+            }
+            return ResponseEntity.ok("created-" + call);
+        }
+    }
+
+    static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.transporteur.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.transporteur.dto.RegisterRequest;
+import com.transporteur.dto.TransporteurDto;
+import com.transporteur.service.AuthService;
+import com.transporteur.service.TransporteurService;
+
+import reactor.core.publisher.BaseSubscriber;
+
+@SpringBootTest
+class ReactiveServerTest {
+
+    @Autowired
+    private ReactiveServer server;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TransporteurService transporteurService;
+
+    @Autowired
+    private ReactiveDirectoryRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WebTestClient client;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort()).build();
+
+        token = register();
+    }
+
+    @Test
+    void requestsWithoutValidTokenAreRejected() {
+        client.get().uri("/api/reactive/transporteurs")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client.get().uri("/api/reactive/transporteurs")
+                .header("Authorization", "Bearer invalide")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void transporteursAreStreamedAsNdjson() {
+        List<TransporteurDto> transporteurs = client.get().uri("/api/reactive/transporteurs")
+                .header("Authorization", "Bearer " + token)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TransporteurDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(transporteurs)
+                .hasSameSizeAs(transporteurService.getAllTransporteurs())
+                .extracting(TransporteurDto::getLocalisation)
+                .contains("Bizerte");
+    }
+
+    @Test
+    void lookupByIdReturnsTransporteurOrNotFound() {
+        Long id = transporteurService.getAllTransporteurs().get(0).getIdTransporteur();
+
+        client.get().uri("/api/reactive/transporteurs/{id}", id)
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.idTransporteur").isEqualTo(id)
+                .jsonPath("$.compte").doesNotExist();
+
+        client.get().uri("/api/reactive/transporteurs/{id}", Long.MAX_VALUE)
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isNotFound();
+        // Identifiant numérique hors de la plage d'un long
+        client.get().uri("/api/reactive/transporteurs/{id}", Long.MAX_VALUE + "0")
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isNotFound();
+        client.get().uri("/api/reactive/clients/{id}", Long.MAX_VALUE + "0")
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void slowListReaderDoesNotHoldAConnection() throws InterruptedException {
+        // Plus de lignes que n'en absorbent les tampons de Reactor : sans pagination,
+        // la requête resterait ouverte tant que le lecteur n'a pas tout consommé
+        seedTransporteurs(1_000);
+        Long id = transporteurService.getAllTransporteurs().get(0).getIdTransporteur();
+
+        // Le lecteur s'arrête après une ligne, avec des pages encore à lire ; le pool de test
+        // n'a qu'une connexion, que la recherche suivante doit pouvoir obtenir
+        List<TransporteurDto> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<TransporteurDto> slowReader = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(TransporteurDto transporteur) {
+                received.add(transporteur);
+            }
+        };
+        repository.findAllTransporteurs().subscribe(slowReader);
+        try {
+            for (int i = 0; i < 50 && received.isEmpty(); i++) {
+                Thread.sleep(100);
+            }
+            assertThat(received).hasSize(1);
+
+            assertThat(repository.findTransporteurById(id).block(Duration.ofSeconds(5)))
+                    .extracting(TransporteurDto::getIdTransporteur)
+                    .isEqualTo(id);
+        } finally {
+            slowReader.dispose();
+        }
+    }
+
+    private void seedTransporteurs(int count) {
+        if (jdbcTemplate.queryForObject("select count(*) from compte where email like 'lot-%'", Integer.class) > 0) {
+            return;
+        }
+        List<Object[]> emails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            emails.add(new Object[] { "lot-" + i + "@test.tn" });
+        }
+        jdbcTemplate.batchUpdate("insert into compte (email, password, role) values (?, 'x', 'TRANSPORTEUR')", emails);
+        jdbcTemplate.update("""
+                insert into transporteur (compte_id, nom, prenom, localisation, note_moyenne, disponible)
+                select id, 'Lot', 'Prénom', 'Bizerte', 0, true from compte where email like 'lot-%'
+                """);
+    }
+
+    private String register() {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("reactif-" + System.nanoTime() + "@test.tn");
+        request.setPassword("secret123");
+        request.setRole("TRANSPORTEUR");
+        request.setNom("Trabelsi");
+        request.setPrenom("Amine");
+        request.setLocalisation("Bizerte");
+        return authService.register(request).getToken();
+    }
+
+}
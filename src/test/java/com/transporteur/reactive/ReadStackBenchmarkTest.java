@@ -0,0 +1,303 @@
+package com.transporteur.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import com.transporteur.security.JwtUtil;
+
+/**
+ * Compare la tenue en concurrence des deux piles de lecture face à des clients lents.
+ *
+ * Pour chaque pile, {@value #SLOW_READERS} clients demandent la liste complète des
+ * transporteurs puis la lisent au compte-gouttes ; pendant ce temps, une requête
+ * légère sert de sonde pour un client normal. Côté servlet, chaque client lent garde
+ * un thread Tomcat bloqué en écriture et la sonde attend qu'un thread se libère ;
+ * côté réactif, l'écriture attend simplement la demande du client.
+ *
+ * Les deux piles lisent une base MySQL avec les pilotes et les pools de production :
+ * Hikari côté servlet, r2dbc-mysql et r2dbc-pool, avec les valeurs par défaut de
+ * {@link ReactiveProperties}, côté réactif. Les lecteurs lents sont plus nombreux que les
+ * connexions R2DBC : la sonde réactive n'est servie à temps que si les listes rendent
+ * leur connexion entre deux pages. La sonde est la même recherche par id des deux côtés,
+ * répétée chaque seconde pendant la fenêtre : les premières sondes tombent pendant que le
+ * serveur remplit les tampons des {@value #SLOW_READERS} connexions, la dernière mesure le
+ * régime établi, une fois tous les lecteurs freinés.
+ *
+ * Lancement : {@code mvn test -Pbenchmark}. La base est un conteneur Testcontainers, ou un
+ * serveur existant désigné par les propriétés système {@code spring.datasource.*} et
+ * {@code transporteur.reactive.r2dbc-url}/{@code username}/{@code password} ; sans l'un
+ * ni l'autre, le test est ignoré.
+ */
+@Tag("benchmark")
+@EnabledIf("mysqlAvailable")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=16",
+        "server.tomcat.threads.min-spare=16",
+        "logging.level.com.transporteur=INFO"
+})
+class ReadStackBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadStackBenchmarkTest.class);
+
+    private static final int ROWS = 12_000;
+    private static final int SLOW_READERS = 64;
+    // Mesuré sur un seul cœur partagé avec la base : le remplissage des tampons dure
+    // 12 à 18 s, les sondes y prennent jusqu'à 5 s ; ensuite 14 à 50 ms
+    private static final Duration HOLD = Duration.ofSeconds(30);
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REACTIVE_PROBE_BOUND = Duration.ofMillis(500);
+    private static final String EMAIL = "benchmark@test.tn";
+
+    private static final MySQLContainer<?> mysql = externalDatabase() ? null : new MySQLContainer<>("mysql:8.0");
+
+    static boolean mysqlAvailable() {
+        return externalDatabase() || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    private static boolean externalDatabase() {
+        return System.getProperty("spring.datasource.url", "").startsWith("jdbc:mysql:");
+    }
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+        // Valeurs de production, à la place du pool d'une connexion des tests H2
+        ReactiveProperties defaults = new ReactiveProperties();
+        registry.add("transporteur.reactive.chunk-size", defaults::getChunkSize);
+        registry.add("transporteur.reactive.pool-max-size", defaults::getPoolMaxSize);
+        if (mysql == null) {
+            return;
+        }
+
+        // Arrêté par Testcontainers à la fin de la JVM
+        mysql.start();
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("transporteur.reactive.r2dbc-url", () -> "r2dbc:pool:mysql://" + mysql.getHost() + ":"
+                + mysql.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + mysql.getDatabaseName()
+                + "?sslMode=DISABLED&serverZoneId=UTC");
+        registry.add("transporteur.reactive.username", mysql::getUsername);
+        registry.add("transporteur.reactive.password", mysql::getPassword);
+    }
+
+    @LocalServerPort
+    private int servletPort;
+
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String token;
+    private long probeId;
+
+    @BeforeEach
+    void seed() {
+        token = jwtUtil.generateToken(EMAIL);
+        if (jdbcTemplate.queryForObject("select count(*) from compte where email = ?", Integer.class, EMAIL) == 0) {
+            insertTransporteurs();
+        }
+        probeId = jdbcTemplate.queryForObject("select min(id_transporteur) from transporteur", Long.class);
+    }
+
+    private void insertTransporteurs() {
+        // Environ 5 Mo par réponse : au-delà du tampon d'émission du noyau (jusqu'à 4 Mo sur
+        // la boucle locale), sans quoi le noyau absorberait toute la réponse des deux côtés
+        String padding = "x".repeat(200);
+        List<Object[]> comptes = new ArrayList<>();
+        comptes.add(new Object[] { EMAIL });
+        for (int i = 0; i < ROWS; i++) {
+            comptes.add(new Object[] { "bench-" + i + "@test.tn" });
+        }
+        jdbcTemplate.batchUpdate("insert into compte (email, password, role) values (?, 'x', 'TRANSPORTEUR')", comptes);
+        jdbcTemplate.update("""
+                insert into transporteur (compte_id, nom, prenom, telephone, localisation, note_moyenne, disponible)
+                select id, 'Nom', 'Prénom', ?, concat('Région ', ?), 0, true from compte where email like 'bench-%'
+                """, padding, padding);
+    }
+
+    @Test
+    void compareConcurrencyUnderSlowReaders() throws Exception {
+        // Le réactif passe en premier : ses lectures s'arrêtent dès qu'un client ferme la
+        // connexion, alors que Tomcat finit de calculer les listes abandonnées et
+        // fausserait la mesure suivante en occupant le processeur
+        // NDJSON : chaque transporteur est écrit dès qu'il est lu
+        Result reactive = run("réactif", reactiveServer.getPort(), "/api/reactive/transporteurs",
+                "/api/reactive/transporteurs/" + probeId, "application/x-ndjson", "reactor-http-");
+        Result servlet = run("servlet", servletPort, "/api/transporteurs",
+                "/api/transporteurs/" + probeId, "application/json", "http-nio-");
+
+        log.info("{} clients lents, {} lignes, fenêtre de {}s, Tomcat limité à 16 threads",
+                SLOW_READERS, ROWS, HOLD.toSeconds());
+        for (Result result : List.of(reactive, servlet)) {
+            log.info("{} : {} / {} clients servis, {} threads serveur, sonde à vide {} ms, sondes chargées {}",
+                    result.stack, result.servedReaders, SLOW_READERS, result.serverThreads,
+                    millis(result.idleProbeMillis),
+                    result.probeMillis.stream().map(ReadStackBenchmarkTest::millis).toList());
+        }
+
+        assertThat(servlet.servedReaders).as("clients servis par Tomcat").isLessThan(SLOW_READERS);
+        assertThat(reactive.servedReaders).as("clients servis par Reactor Netty").isEqualTo(SLOW_READERS);
+        assertThat(reactive.serverThreads).as("threads Reactor Netty").isLessThan(servlet.serverThreads);
+        // Une connexion retenue par les lecteurs lents ferait expirer les sondes réactives
+        assertThat(reactive.probeMillis).as("sondes réactives sous charge (ms)").allMatch(millis -> millis >= 0);
+        // Dix fois le pire régime établi mesuré
+        assertThat(reactive.lastProbeMillis()).as("dernière sonde réactive (ms)")
+                .isLessThanOrEqualTo(REACTIVE_PROBE_BOUND.toMillis());
+        assertThat(servlet.lastProbeMillis() < 0 || servlet.lastProbeMillis() > reactive.lastProbeMillis())
+                .as("dernière sonde servlet (%s ms) plus lente que la dernière sonde réactive (%s ms)",
+                        millis(servlet.lastProbeMillis()), reactive.lastProbeMillis())
+                .isTrue();
+    }
+
+    private Result run(String stack, int port, String listPath, String probePath, String accept,
+                       String threadPrefix) throws Exception {
+        probe(port, listPath, accept);
+        long idleProbeMillis = probe(port, probePath, "application/json");
+        List<SlowReader> readers = new ArrayList<>();
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(4);
+        try {
+            for (int i = 0; i < SLOW_READERS; i++) {
+                SlowReader reader = new SlowReader(port, listPath, accept, token);
+                readers.add(reader);
+                ticker.scheduleWithFixedDelay(reader::tick, 0, 100, TimeUnit.MILLISECONDS);
+            }
+
+            List<Long> probeMillis = new ArrayList<>();
+            long end = System.nanoTime() + HOLD.toNanos();
+            while (System.nanoTime() < end) {
+                Thread.sleep(1_000);
+                probeMillis.add(probe(port, probePath, "application/json"));
+            }
+
+            int serverThreads = (int) Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().startsWith(threadPrefix))
+                    .count();
+            int served = (int) readers.stream().filter(SlowReader::served).count();
+            return new Result(stack, served, serverThreads, idleProbeMillis, probeMillis);
+        } finally {
+            ticker.shutdownNow();
+            for (SlowReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private long probe(int port, String path, String accept) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(PROBE_TIMEOUT).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", accept)
+                .timeout(PROBE_TIMEOUT)
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            assertThat(response.statusCode()).isEqualTo(200);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } catch (HttpTimeoutException e) {
+            return -1;
+        }
+    }
+
+    private static String millis(long value) {
+        return value < 0 ? "> " + PROBE_TIMEOUT.toMillis() : String.valueOf(value);
+    }
+
+    private record Result(String stack, int servedReaders, int serverThreads, long idleProbeMillis,
+                          List<Long> probeMillis) {
+
+        long lastProbeMillis() {
+            return probeMillis.get(probeMillis.size() - 1);
+        }
+    }
+
+    /**
+     * Client HTTP brut qui lit 256 octets par tick, avec un petit tampon de réception
+     * pour que le serveur se heurte vite à la lenteur du client.
+     */
+    private static final class SlowReader {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final byte[] buffer = new byte[256];
+        private volatile boolean served;
+
+        SlowReader(int port, String path, String accept, String token) throws IOException {
+            socket = new Socket();
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", port));
+            socket.setSoTimeout(1);
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + path + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Authorization: Bearer " + token + "\r\n"
+                    + "Accept: " + accept + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            in = socket.getInputStream();
+        }
+
+        void tick() {
+            try {
+                if (in.read(buffer) > 0) {
+                    served = true;
+                }
+            } catch (SocketTimeoutException e) {
+                // Rien à lire pour l'instant : la requête attend encore un thread serveur
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        boolean served() {
+            return served;
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // déjà fermé
+            }
+        }
+    }
+
+}
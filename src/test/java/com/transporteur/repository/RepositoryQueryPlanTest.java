@@ -0,0 +1,99 @@
+package com.transporteur.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Exécute chaque méthode de requête déclarée dans les repositories et vérifie,
+ * via EXPLAIN sur la base H2 embarquée, qu'aucune ne retombe sur un parcours
+ * complet de table. Une nouvelle méthode de requête est couverte automatiquement.
+ */
+@SpringBootTest
+@Transactional
+class RepositoryQueryPlanTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        Repositories repositories = new Repositories(context);
+        List<String> tableScans = new ArrayList<>();
+        int checkedQueries = 0;
+
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+
+            for (Method method : information.getQueryMethods()) {
+                SqlCapture.drain();
+                ReflectionUtils.invokeMethod(method, repository, sampleArguments(method));
+
+                List<String> statements = SqlCapture.drain();
+                assertThat(statements).as("SQL exécuté par %s", method).isNotEmpty();
+                for (String sql : statements) {
+                    String plan = explain(sql);
+                    if (plan.toLowerCase(Locale.ROOT).contains("tablescan")) {
+                        tableScans.add(information.getRepositoryInterface().getSimpleName()
+                                + "." + method.getName() + " -> " + plan);
+                    }
+                    checkedQueries++;
+                }
+            }
+        }
+
+        assertThat(checkedQueries).isPositive();
+        assertThat(tableScans).as("Requêtes en parcours complet de table").isEmpty();
+    }
+
+    private String explain(String sql) {
+        Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        Arrays.fill(parameters, "1");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = sampleValue(types[i], method);
+        }
+        return arguments;
+    }
+
+    private static Object sampleValue(Class<?> type, Method method) {
+        if (type == String.class) {
+            return "1";
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return Boolean.TRUE;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        throw new IllegalArgumentException("Pas de valeur d'exemple pour " + type + " dans " + method);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.transporteur.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Enregistre le SQL envoyé par Hibernate pour pouvoir en examiner le plan d'exécution.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static List<String> drain() {
+        List<String> captured = List.copyOf(statements);
+        statements.clear();
+        return captured;
+    }
+
+}
@@ -0,0 +1,255 @@
+package com.transporteur.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.transporteur.dto.RegisterRequest;
+import com.transporteur.dto.TransporteurDto;
+import com.transporteur.model.Client;
+import com.transporteur.model.Compte;
+import com.transporteur.model.Transporteur;
+import com.transporteur.reactive.ReactiveDirectoryRepository;
+import com.transporteur.repository.TransporteurRepository;
+import com.transporteur.service.AuthService;
+import com.transporteur.service.ClientService;
+import com.transporteur.service.TransporteurService;
+
+/**
+ * Deux bases H2 embarquées jouent le rôle des shards nord et sud.
+ */
+@SpringBootTest(properties = {
+        "transporteur.sharding.enabled=true",
+        "transporteur.sharding.default-shard=nord",
+        "transporteur.sharding.shards.nord.index=0",
+        "transporteur.sharding.shards.nord.url=jdbc:h2:mem:shard_nord;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "transporteur.sharding.shards.nord.r2dbc-url=r2dbc:h2:mem:///shard_nord;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "transporteur.sharding.shards.nord.username=sa",
+        "transporteur.sharding.shards.sud.index=1",
+        "transporteur.sharding.shards.sud.url=jdbc:h2:mem:shard_sud;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "transporteur.sharding.shards.sud.r2dbc-url=r2dbc:h2:mem:///shard_sud;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "transporteur.sharding.shards.sud.username=sa",
+        "transporteur.sharding.regions.tunis=nord",
+        "transporteur.sharding.regions.sfax=sud",
+        "transporteur.sharding.regions.gabes=sud"
+})
+class ShardingTest {
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TransporteurService transporteurService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ReactiveDirectoryRepository reactiveRepository;
+
+    @Autowired
+    private TransporteurRepository transporteurRepository;
+
+    @Test
+    void profilesAreStoredOnTheShardOfTheirRegion() {
+        authService.register(transporteur("ali@nord.tn", "Tunis"));
+        authService.register(transporteur("sami@sud.tn", "Sfax"));
+        authService.register(client("lina@sud.tn", "Gabès"));
+
+        assertThat(profiles("nord", "transporteur", "ali@nord.tn")).isEqualTo(1);
+        assertThat(profiles("sud", "transporteur", "sami@sud.tn")).isEqualTo(1);
+        assertThat(profiles("sud", "client", "lina@sud.tn")).isEqualTo(1);
+        assertThat(profiles("nord", "client", "lina@sud.tn")).isZero();
+        // Le compte suit son profil
+        assertThat(count("sud", "compte where email in ('sami@sud.tn', 'lina@sud.tn')")).isEqualTo(2);
+        assertThat(count("nord", "compte where email in ('sami@sud.tn', 'lina@sud.tn')")).isZero();
+
+        assertThat(transporteurService.getAllTransporteurs())
+                .extracting(t -> t.getCompte().getEmail())
+                .contains("ali@nord.tn", "sami@sud.tn");
+        assertThat(transporteurService.getTransporteursDisponibles("Sfax"))
+                .extracting(t -> t.getCompte().getEmail())
+                .contains("sami@sud.tn")
+                .doesNotContain("ali@nord.tn");
+        assertThat(clientService.getAllClients())
+                .extracting(Client::getVille)
+                .contains("Gabès");
+        assertThat(reactiveRepository.findAllTransporteurs().collectList().block())
+                .extracting(TransporteurDto::getLocalisation)
+                .contains("Tunis", "Sfax");
+
+        // Connexion et unicité de l'email traversent les shards
+        assertThat(authService.login("sami@sud.tn", "secret123").getToken()).isNotBlank();
+        assertThatThrownBy(() -> authService.register(transporteur("sami@sud.tn", "Tunis")))
+                .hasMessage("Email déjà utilisé !");
+    }
+
+    @Test
+    void identifiersAreUniqueAcrossShards() {
+        authService.register(transporteur("nabil@nord.tn", "Tunis"));
+        authService.register(transporteur("rania@sud.tn", "Sfax"));
+
+        // Chaque shard génère ses identifiants dans sa propre plage
+        assertThat(maxId("nord", "transporteur", "id_transporteur")).isLessThan(ShardProperties.ID_RANGE);
+        assertThat(maxId("sud", "transporteur", "id_transporteur")).isGreaterThan(ShardProperties.ID_RANGE);
+        assertThat(maxId("sud", "compte", "id")).isGreaterThan(ShardProperties.ID_RANGE);
+        assertThat(transporteurService.getAllTransporteurs())
+                .extracting(Transporteur::getIdTransporteur)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void profileMustBeOnTheShardOfItsCompte() {
+        authService.register(client("yassine@nord.tn", "Tunis"));
+        long compteNord = jdbcTemplate("nord")
+                .queryForObject("select id from compte where email = 'yassine@nord.tn'", Long.class);
+
+        Transporteur transporteur = new Transporteur();
+        transporteur.setCompte(new Compte());
+        transporteur.getCompte().setId(compteNord);
+        transporteur.setNom("Nom");
+        transporteur.setPrenom("Prénom");
+        transporteur.setLocalisation("Sfax");
+
+        assertThatThrownBy(() -> transporteurService.addTransporteur(transporteur))
+                .hasMessageContaining("n'appartient pas à la région Sfax");
+        assertThat(count("sud", "transporteur where compte_id = " + compteNord)).isZero();
+    }
+
+    @Test
+    void concurrentRegistrationsOfOneEmailInTwoRegionsCreateOneCompte() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> nord = executor.submit(() -> registerAfter(start, transporteur("double@test.tn", "Tunis")));
+            Future<Boolean> sud = executor.submit(() -> registerAfter(start, transporteur("double@test.tn", "Sfax")));
+            start.countDown();
+            assertThat(List.of(nord.get(), sud.get())).containsExactlyInAnyOrder(true, false);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(count("nord", "compte where email = 'double@test.tn'")
+                + count("sud", "compte where email = 'double@test.tn'")).isEqualTo(1);
+        assertThat(authService.login("double@test.tn", "secret123").getToken()).isNotBlank();
+    }
+
+    @Test
+    void failedRegistrationOnTheDirectoryShardLeavesNoReservation() {
+        RegisterRequest incomplete = client("incomplet@nord.tn", "Tunis");
+        incomplete.setNom(null);
+
+        assertThatThrownBy(() -> authService.register(incomplete))
+                .hasMessageContaining("obligatoires");
+        assertThat(count("nord", "compte_email where email = 'incomplet@nord.tn'")).isZero();
+        assertThat(authService.register(client("incomplet@nord.tn", "Tunis")).getToken()).isNotBlank();
+    }
+
+    @Test
+    void abandonedReservationIsTakenOver() {
+        // Inscriptions interrompues entre la réservation et l'écriture du compte sur sud
+        JdbcTemplate directory = jdbcTemplate("nord");
+        String reserve = "insert into compte_email (email, shard, pending_since) values (?, 'sud', ?)";
+        directory.update(reserve, "abandon@sud.tn", LocalDateTime.now().minusHours(1));
+        directory.update(reserve, "en-cours@sud.tn", LocalDateTime.now());
+
+        assertThat(authService.register(transporteur("abandon@sud.tn", "Tunis")).getToken()).isNotBlank();
+        assertThat(count("nord", "compte where email = 'abandon@sud.tn'")).isEqualTo(1);
+        assertThat(count("nord", "compte_email where email = 'abandon@sud.tn' and shard = 'nord' and pending_since is null"))
+                .isEqualTo(1);
+
+        // Réservation récente : l'inscription est peut-être encore en cours
+        assertThatThrownBy(() -> authService.register(transporteur("en-cours@sud.tn", "Sfax")))
+                .hasMessage("Email déjà utilisé !");
+    }
+
+    @Test
+    void staleReservationOfAnExistingCompteIsConfirmed() {
+        authService.register(transporteur("confirme@sud.tn", "Sfax"));
+        assertThat(count("nord", "compte_email where email = 'confirme@sud.tn' and pending_since is null")).isEqualTo(1);
+
+        // Confirmation perdue après l'écriture du compte
+        jdbcTemplate("nord").update("update compte_email set pending_since = ? where email = 'confirme@sud.tn'",
+                LocalDateTime.now().minusHours(1));
+
+        assertThatThrownBy(() -> authService.register(transporteur("confirme@sud.tn", "Sfax")))
+                .hasMessage("Email déjà utilisé !");
+        assertThat(count("nord", "compte_email where email = 'confirme@sud.tn' and pending_since is null")).isEqualTo(1);
+        assertThat(count("sud", "compte where email = 'confirme@sud.tn'")).isEqualTo(1);
+    }
+
+    @Test
+    void repositoryAccessOutsideShardTemplateFails() {
+        assertThatThrownBy(() -> transporteurRepository.findAll())
+                .rootCause()
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Aucun shard sélectionné");
+    }
+
+    private boolean registerAfter(CountDownLatch start, RegisterRequest request) throws InterruptedException {
+        start.await();
+        try {
+            authService.register(request);
+            return true;
+        } catch (RuntimeException e) {
+            assertThat(e).hasMessage("Email déjà utilisé !");
+            return false;
+        }
+    }
+
+    private int profiles(String shard, String table, String email) {
+        return count(shard, table + " where compte_id in (select id from compte where email = '" + email + "')");
+    }
+
+    private long maxId(String shard, String table, String idColumn) {
+        return jdbcTemplate(shard).queryForObject("select max(" + idColumn + ") from " + table, Long.class);
+    }
+
+    private int count(String shard, String table) {
+        return jdbcTemplate(shard).queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private JdbcTemplate jdbcTemplate(String shard) {
+        DataSource shardDataSource = dataSource.getResolvedDataSources().get(shard);
+        return new JdbcTemplate(shardDataSource);
+    }
+
+    private static RegisterRequest transporteur(String email, String localisation) {
+        RegisterRequest request = request(email, "TRANSPORTEUR");
+        request.setLocalisation(localisation);
+        return request;
+    }
+
+    private static RegisterRequest client(String email, String ville) {
+        RegisterRequest request = request(email, "CLIENT");
+        request.setVille(ville);
+        return request;
+    }
+
+    private static RegisterRequest request(String email, String role) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("secret123");
+        request.setRole(role);
+        request.setNom("Nom");
+        request.setPrenom("Prénom");
+        return request;
+    }
+
+}
@@ -0,0 +1,48 @@
+package db.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class V2IndexLookupColumnsTest {
+
+    @Test
+    void uniqueKeyLeftByHibernateIsNotDuplicated() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ddl_auto_update;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Tables telles que V1 les crée, puis les clés uniques ajoutées par ddl-auto=update
+        migrate(dataSource, "1");
+        jdbcTemplate.execute("ALTER TABLE client ADD CONSTRAINT uk_hibernate_client UNIQUE (compte_id)");
+        jdbcTemplate.execute("ALTER TABLE transporteur ADD CONSTRAINT uk_hibernate_transporteur UNIQUE (compte_id)");
+        migrate(dataSource, "latest");
+
+        for (String table : List.of("client", "transporteur")) {
+            List<String> uniqueIndexes = jdbcTemplate.queryForList("""
+                    select i.index_name from information_schema.indexes i
+                    join information_schema.index_columns c
+                      on c.index_schema = i.index_schema and c.index_name = i.index_name
+                    where i.table_name = ? and i.index_type_name = 'UNIQUE INDEX' and c.column_name = 'compte_id'
+                    """, String.class, table);
+            assertThat(uniqueIndexes).as("index uniques sur %s.compte_id", table).hasSize(1);
+        }
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String target) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .placeholders(Map.of("shard", "default"))
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+}